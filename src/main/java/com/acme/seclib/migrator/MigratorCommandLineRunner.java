@@ -15,14 +15,22 @@
  */
 package com.acme.seclib.migrator;
 
+import com.acme.seclib.migrator.report.MigrationReport;
+import com.acme.seclib.migrator.report.MigrationReportWriter;
+import com.acme.seclib.migrator.scan.ParallelProjectScanner;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.sbm.engine.commands.ApplyCommand;
-import org.springframework.sbm.engine.commands.ScanCommand;
 import org.springframework.sbm.engine.context.ProjectContext;
 import org.springframework.stereotype.Component;
 
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
 
 @Component
 @Profile("!test")/**
@@ -32,16 +40,38 @@ public class MigratorCommandLineRunner implements CommandLineRunner {
 
 
     @Autowired
-    private ScanCommand scanCommand;
+    private ParallelProjectScanner projectScanner;
     @Autowired
     private ApplyCommand applyCommand;
+    @Autowired
+    private MigrationReport migrationReport;
+
+    // JSON Lines report with one record per Java source, e.g. --seclib.migrator.report=migration-report.jsonl
+    @Value("${seclib.migrator.report:}")
+    private String reportFile;
 
     @Override
     public void run(String... args) throws Exception {
-        if(args.length == 0) {
-            throw new IllegalArgumentException("Please provide path to application.");
+        // Spring consumes --options as properties, the first remaining argument is the application
+        String applicationPath = Arrays.stream(args)
+                .filter(arg -> !arg.startsWith("--"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Please provide path to application."));
+        if (reportFile.isBlank()) {
+            migrate(applicationPath);
+            return;
         }
-        ProjectContext projectContext = scanCommand.execute(args[0]);
+
+        // records are written while the migration runs, what was done so far is kept if it fails
+        try (Writer writer = Files.newBufferedWriter(Path.of(reportFile))) {
+            migrationReport.writeTo(new MigrationReportWriter(writer));
+            migrate(applicationPath);
+            migrationReport.finish();
+        }
+    }
+
+    private void migrate(String applicationPath) {
+        ProjectContext projectContext = projectScanner.scan(applicationPath);
         applyCommand.execute(projectContext, "migrate-seclib-5-to-6");
     }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.cfg.ConstructorDetector;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleDeserializers;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.module.SimpleSerializers;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes OpenRewrite LSTs to Smile through their fields and all-args constructors.
+ *
+ * {@link JavaType}s are not written with the tree. They form a cyclic graph that is shared by all trees of a project
+ * and stays on the heap anyway, so the codec keeps every type it has seen in a table and only writes its index.
+ * Decoded trees reference the same type instances as the trees they were encoded from.
+ */
+public class JacksonLstCodec implements LstCodec<SourceFile> {
+
+    private final List<JavaType> types = new ArrayList<>();
+    private final Map<JavaType, Integer> typeIds = new IdentityHashMap<>();
+    private final ObjectMapper objectMapper;
+
+    public JacksonLstCodec() {
+        SimpleModule typeTable = new SimpleModule();
+        typeTable.setSerializers(new SimpleSerializers() {
+            @Override
+            public JsonSerializer<?> findSerializer(SerializationConfig config, com.fasterxml.jackson.databind.JavaType type, BeanDescription beanDesc) {
+                if (Path.class.isAssignableFrom(type.getRawClass())) {
+                    return ToStringSerializer.instance;
+                }
+                return JavaType.class.isAssignableFrom(type.getRawClass()) ? new TypeIdSerializer() : null;
+            }
+        });
+        typeTable.setDeserializers(new SimpleDeserializers() {
+            @Override
+            public JsonDeserializer<?> findBeanDeserializer(com.fasterxml.jackson.databind.JavaType type, DeserializationConfig config, BeanDescription beanDesc) {
+                if (Path.class.isAssignableFrom(type.getRawClass())) {
+                    return new RelativePathDeserializer();
+                }
+                return JavaType.class.isAssignableFrom(type.getRawClass()) ? new TypeIdDeserializer() : null;
+            }
+
+            // JavaType.Primitive is an enum
+            @Override
+            public JsonDeserializer<?> findEnumDeserializer(Class<?> type, DeserializationConfig config, BeanDescription beanDesc) {
+                return JavaType.class.isAssignableFrom(type) ? new TypeIdDeserializer() : null;
+            }
+        });
+        typeTable.setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+                return J.Literal.class.equals(beanDesc.getBeanClass()) ? new LiteralDeserializer(deserializer) : deserializer;
+            }
+        });
+        this.objectMapper = SmileMapper.builder()
+                .addModule(new ParameterNamesModule(JsonCreator.Mode.PROPERTIES))
+                .addModule(typeTable)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                // the trees are immutable value classes, their fields are their state
+                .visibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+                .visibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+                .visibility(PropertyAccessor.CREATOR, JsonAutoDetect.Visibility.PUBLIC_ONLY)
+                .constructorDetector(ConstructorDetector.USE_PROPERTIES_BASED)
+                .build();
+    }
+
+    @Override
+    public synchronized byte[] encode(SourceFile sourceFile) {
+        try {
+            return objectMapper.writeValueAsBytes(sourceFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize LST of " + sourceFile.getSourcePath(), e);
+        }
+    }
+
+    @Override
+    public synchronized SourceFile decode(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, SourceFile.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not deserialize LST", e);
+        }
+    }
+
+    private class TypeIdSerializer extends JsonSerializer<JavaType> {
+
+        @Override
+        public void serialize(JavaType type, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            Integer id = typeIds.get(type);
+            if (id == null) {
+                id = types.size();
+                types.add(type);
+                typeIds.put(type, id);
+            }
+            generator.writeNumber(id);
+        }
+
+        @Override
+        public void serializeWithType(JavaType type, JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+            serialize(type, generator, provider);
+        }
+    }
+
+    /**
+     * {@code J.Literal.value} is an untyped {@code Object}, Jackson reads {@code 5L} back as an {@code Integer} and
+     * {@code 'c'} as a {@code String}. The literal's primitive type tells what the value was.
+     */
+    private static class LiteralDeserializer extends DelegatingDeserializer {
+
+        LiteralDeserializer(JsonDeserializer<?> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new LiteralDeserializer(newDelegatee);
+        }
+
+        @Override
+        public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            J.Literal literal = (J.Literal) super.deserialize(parser, context);
+            return literal.withValue(typedValue(literal.getValue(), literal.getType()));
+        }
+
+        private static Object typedValue(Object value, JavaType.Primitive type) {
+            if (value instanceof Number number && type != null) {
+                return switch (type) {
+                    case Byte -> number.byteValue();
+                    case Short -> number.shortValue();
+                    case Int -> number.intValue();
+                    case Long -> number.longValue();
+                    case Float -> number.floatValue();
+                    case Double -> number.doubleValue();
+                    default -> value;
+                };
+            }
+            if (value instanceof String string && type == JavaType.Primitive.Char && string.length() == 1) {
+                return string.charAt(0);
+            }
+            return value;
+        }
+    }
+
+    // Jackson writes paths as absolute URIs, source paths are relative
+    private static class RelativePathDeserializer extends JsonDeserializer<Path> {
+
+        @Override
+        public Path deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return Path.of(parser.getValueAsString());
+        }
+    }
+
+    private class TypeIdDeserializer extends JsonDeserializer<JavaType> {
+
+        @Override
+        public JavaType deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return types.get(parser.getIntValue());
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser parser, DeserializationContext context, TypeDeserializer typeDeserializer) throws IOException {
+            return deserialize(parser, context);
+        }
+    }
+}
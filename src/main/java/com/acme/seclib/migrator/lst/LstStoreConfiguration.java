@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.sbm.java.refactoring.JavaRefactoringFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Provides the optional on-disk LST store, enabled with {@code seclib.migrator.lst-store.enabled=true}.
+ *
+ * All Java sources of a scanned project are then kept in the store, see {@link StoredJavaSource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "seclib.migrator.lst-store", name = "enabled", havingValue = "true")
+public class LstStoreConfiguration {
+
+    @Bean
+    SpillingLstStore<UUID, SourceFile> lstStore(@Value("${seclib.migrator.lst-store.max-resident:2000}") int maxResident) {
+        try {
+            Path segmentFile = Files.createTempFile("seclib-migrator-lst", ".seg");
+            return new SpillingLstStore<>(segmentFile, maxResident, new JacksonLstCodec());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create LST segment", e);
+        }
+    }
+
+    // must win over SBM's wrapper for compilation units
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    StoredJavaSourceWrapper storedJavaSourceWrapper(JavaRefactoringFactory javaRefactoringFactory, JavaParser javaParser, SpillingLstStore<UUID, SourceFile> lstStore) {
+        return new StoredJavaSourceWrapper(javaRefactoringFactory, javaParser, lstStore);
+    }
+}
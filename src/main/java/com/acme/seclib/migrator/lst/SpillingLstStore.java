@@ -0,0 +1,210 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keeps at most {@code maxResident} LSTs on the heap and spills the least recently used ones to an on-disk segment.
+ *
+ * Spilled entries are read back with positional reads when they are accessed again. Entries that were loaded from the
+ * segment and not replaced since are dropped on eviction without being written again. Replacing or removing a spilled
+ * entry leaves a dead slot behind; once dead slots take up more than half of the segment, the live slots are moved
+ * to the front and the segment is truncated. The segment is deleted when the store is closed.
+ */
+public class SpillingLstStore<K, V> implements AutoCloseable {
+
+    private final int maxResident;
+    private final LstCodec<V> codec;
+    private final FileChannel segment;
+    private final Map<K, Slot> spilled = new HashMap<>();
+    private final LinkedHashMap<K, V> resident;
+    private long segmentSize;
+    private long deadBytes;
+
+    public SpillingLstStore(Path segmentFile, int maxResident, LstCodec<V> codec) {
+        if (maxResident < 1) {
+            throw new IllegalArgumentException("maxResident must be at least 1 but was " + maxResident);
+        }
+        this.maxResident = maxResident;
+        this.codec = codec;
+        try {
+            this.segment = FileChannel.open(segmentFile,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open LST segment " + segmentFile, e);
+        }
+        // access order keeps the hot entries at the tail
+        this.resident = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > SpillingLstStore.this.maxResident) {
+                    spill(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized void put(K key, V value) {
+        // the spilled copy is outdated now
+        release(key);
+        resident.put(key, value);
+    }
+
+    public synchronized Optional<V> get(K key) {
+        V value = resident.get(key);
+        if (value == null) {
+            Slot slot = spilled.get(key);
+            if (slot == null) {
+                return Optional.empty();
+            }
+            value = codec.decode(read(slot));
+            resident.put(key, value);
+        }
+        return Optional.of(value);
+    }
+
+    public synchronized boolean contains(K key) {
+        return resident.containsKey(key) || spilled.containsKey(key);
+    }
+
+    public synchronized void remove(K key) {
+        resident.remove(key);
+        release(key);
+        compactIfMostlyDead();
+    }
+
+    public synchronized int size() {
+        Set<K> keys = new HashSet<>(spilled.keySet());
+        keys.addAll(resident.keySet());
+        return keys.size();
+    }
+
+    public synchronized int residentCount() {
+        return resident.size();
+    }
+
+    public synchronized long segmentSize() {
+        return segmentSize;
+    }
+
+    @Override
+    public synchronized void close() {
+        resident.clear();
+        spilled.clear();
+        try {
+            segment.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close LST segment", e);
+        }
+    }
+
+    private void spill(K key, V value) {
+        if (spilled.containsKey(key)) {
+            // unchanged since it was loaded, the segment still holds it
+            return;
+        }
+        spilled.put(key, write(codec.encode(value)));
+        compactIfMostlyDead();
+    }
+
+    private void release(K key) {
+        Slot slot = spilled.remove(key);
+        if (slot != null) {
+            deadBytes += slot.length();
+        }
+    }
+
+    private void compactIfMostlyDead() {
+        if (deadBytes * 2 <= segmentSize) {
+            return;
+        }
+        List<Map.Entry<K, Slot>> live = spilled.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().offset()))
+                .toList();
+        long offset = 0;
+        // slots only move towards the front, so a slot is read before anything overwrites it
+        for (Map.Entry<K, Slot> entry : live) {
+            Slot slot = entry.getValue();
+            if (slot.offset() != offset) {
+                write(read(slot), offset);
+                entry.setValue(new Slot(offset, slot.length()));
+            }
+            offset += slot.length();
+        }
+        try {
+            segment.truncate(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not truncate LST segment", e);
+        }
+        segmentSize = offset;
+        deadBytes = 0;
+    }
+
+    private Slot write(byte[] bytes) {
+        Slot slot = new Slot(segmentSize, bytes.length);
+        write(bytes, slot.offset());
+        segmentSize += bytes.length;
+        return slot;
+    }
+
+    private void write(byte[] bytes, long offset) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                segment.write(buffer, offset + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to LST segment", e);
+        }
+    }
+
+    private byte[] read(Slot slot) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(slot.length());
+            while (buffer.hasRemaining()) {
+                if (segment.read(buffer, slot.offset() + buffer.position()) < 0) {
+                    throw new IllegalStateException("LST segment ends before slot " + slot);
+                }
+            }
+            return buffer.array();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read from LST segment", e);
+        }
+    }
+
+    private record Slot(long offset, int length) {
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.springframework.sbm.java.impl.OpenRewriteJavaSource;
+import org.springframework.sbm.java.refactoring.JavaRefactoring;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A Java source whose compilation unit lives in a {@link SpillingLstStore} instead of the holder.
+ *
+ * The holder itself only keeps a hollow copy without imports and classes, which carries the id, path and markers
+ * of the compilation unit. The full tree is loaded from the store on every access, so at most
+ * {@code seclib.migrator.lst-store.max-resident} trees are on the heap no matter how many holders the
+ * {@code ProjectResourceSet} contains. The scan puts the trees into the store as soon as they are parsed, see
+ * {@link #detach(J.CompilationUnit, SpillingLstStore)}, so the project is never on the heap as a whole.
+ */
+public class StoredJavaSource extends OpenRewriteJavaSource {
+
+    private final SpillingLstStore<UUID, SourceFile> store;
+
+    /**
+     * @param compilationUnit  the full tree, or the hollow copy of a tree that is already in the store
+     */
+    public StoredJavaSource(Path absoluteProjectDir, J.CompilationUnit compilationUnit, JavaRefactoring refactoring,
+                            JavaParser javaParser, SpillingLstStore<UUID, SourceFile> store) {
+        super(absoluteProjectDir, hollow(compilationUnit), refactoring, javaParser);
+        this.store = store;
+        if (!store.contains(compilationUnit.getId())) {
+            store.put(compilationUnit.getId(), compilationUnit);
+        }
+    }
+
+    /**
+     * Moves a parsed tree into the store.
+     *
+     * @return the hollow copy to carry on with
+     */
+    public static J.CompilationUnit detach(J.CompilationUnit compilationUnit, SpillingLstStore<UUID, SourceFile> store) {
+        store.put(compilationUnit.getId(), compilationUnit);
+        return hollow(compilationUnit);
+    }
+
+    @Override
+    public J.CompilationUnit getSourceFile() {
+        J.CompilationUnit hollow = super.getSourceFile();
+        if (store == null) {
+            // called from the super constructor
+            return hollow;
+        }
+        return store.get(hollow.getId())
+                .map(J.CompilationUnit.class::cast)
+                .orElseThrow(() -> new IllegalStateException("LST of " + hollow.getSourcePath() + " is missing in the store"));
+    }
+
+    @Override
+    public void replaceWith(J.CompilationUnit compilationUnit) {
+        store.remove(super.getSourceFile().getId());
+        store.put(compilationUnit.getId(), compilationUnit);
+        // marks the holder as changed
+        super.replaceWith(hollow(compilationUnit));
+    }
+
+    @Override
+    public String print() {
+        return getSourceFile().printAll();
+    }
+
+    static J.CompilationUnit hollow(J.CompilationUnit compilationUnit) {
+        return compilationUnit.withImports(List.of()).withClasses(List.of());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.springframework.sbm.java.refactoring.JavaRefactoringFactory;
+import org.springframework.sbm.project.resource.ProjectResourceWrapper;
+import org.springframework.sbm.project.resource.RewriteSourceFileHolder;
+
+import java.util.UUID;
+
+/**
+ * Wraps the compilation units the scan has moved into the store into {@link StoredJavaSource}s when the
+ * {@code ProjectContext} is created.
+ *
+ * Registered ahead of SBM's own Java source wrapper. The scan checks that every Java source ended up as a
+ * {@link StoredJavaSource}, so a registry that lets another wrapper replace it fails the scan instead of silently
+ * pinning the trees. The refactoring is created for the hollow copy, so it never references a full tree.
+ */
+public class StoredJavaSourceWrapper implements ProjectResourceWrapper<StoredJavaSource> {
+
+    private final JavaRefactoringFactory javaRefactoringFactory;
+    private final JavaParser javaParser;
+    private final SpillingLstStore<UUID, SourceFile> store;
+
+    public StoredJavaSourceWrapper(JavaRefactoringFactory javaRefactoringFactory, JavaParser javaParser, SpillingLstStore<UUID, SourceFile> store) {
+        this.javaRefactoringFactory = javaRefactoringFactory;
+        this.javaParser = javaParser;
+        this.store = store;
+    }
+
+    @Override
+    public boolean shouldHandle(RewriteSourceFileHolder<? extends SourceFile> rewriteSourceFileHolder) {
+        return rewriteSourceFileHolder.getSourceFile() instanceof J.CompilationUnit compilationUnit
+                && !(rewriteSourceFileHolder instanceof StoredJavaSource)
+                && store.contains(compilationUnit.getId());
+    }
+
+    @Override
+    public StoredJavaSource wrapRewriteSourceFileHolder(RewriteSourceFileHolder<? extends SourceFile> rewriteSourceFileHolder) {
+        J.CompilationUnit hollow = StoredJavaSource.hollow((J.CompilationUnit) rewriteSourceFileHolder.getSourceFile());
+        return new StoredJavaSource(rewriteSourceFileHolder.getAbsoluteProjectDir(), hollow,
+                javaRefactoringFactory.createRefactoring(hollow), javaParser, store);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.recipes;
+
+import com.acme.seclib.migrator.report.MigrationReport;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.sbm.engine.context.ProjectContext;
+import org.springframework.sbm.engine.recipe.AbstractAction;
+import org.springframework.sbm.project.resource.RewriteSourceFileHolder;
+
+/**
+ * Runs the {@link MigrateToAnnotationVisitor} on one compilation unit after the other and writes each result back
+ * to its holder right away.
+ *
+ * Unlike a recipe run, which collects the results for all sources before merging them, this keeps at most one
+ * migrated tree in flight, so Java sources backed by the LST store are loaded and evicted one by one.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+public class MigrateToAnnotationAction extends AbstractAction {
+
+    @JsonIgnore
+    @Autowired
+    private MigrationReport migrationReport;
+    @JsonIgnore
+    @Autowired
+    private ExecutionContext executionContext;
+
+    @Override
+    public void apply(ProjectContext projectContext) {
+        projectContext.getProjectResources().stream()
+                .filter(holder -> holder.getSourceFile() instanceof J.CompilationUnit)
+                .forEach(this::migrate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void migrate(RewriteSourceFileHolder<? extends SourceFile> holder) {
+        RewriteSourceFileHolder<J.CompilationUnit> javaSource = (RewriteSourceFileHolder<J.CompilationUnit>) holder;
+        J.CompilationUnit compilationUnit = javaSource.getSourceFile();
+        J.CompilationUnit migrated = (J.CompilationUnit) new MigrateToAnnotationVisitor(migrationReport).visit(compilationUnit, executionContext);
+        if (migrated != compilationUnit) {
+            javaSource.replaceWith(migrated);
+        }
+    }
+}
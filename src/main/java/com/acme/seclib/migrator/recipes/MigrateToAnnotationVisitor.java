@@ -15,14 +15,18 @@
  */
 package com.acme.seclib.migrator.recipes;
 
+import com.acme.seclib.migrator.report.MigrationReport;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.JavaTemplate;
 import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.Statement;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 
@@ -38,6 +42,39 @@ public class MigrateToAnnotationVisitor extends JavaIsoVisitor<ExecutionContext>
 
     private List<J.MethodDeclaration> affectedMethod;
 
+    private final MigrationReport migrationReport;
+
+    private boolean usesSecurityCheck;
+    private List<String> methodsRewritten = new ArrayList<>();
+
+    public MigrateToAnnotationVisitor() {
+        this(null);
+    }
+
+    public MigrateToAnnotationVisitor(@Nullable MigrationReport migrationReport) {
+        this.migrationReport = migrationReport;
+    }
+
+    // record cost and changes per compilation unit, after visitors scheduled with doAfterVisit ran
+    @Override
+    public J visit(@Nullable Tree tree, ExecutionContext executionContext) {
+        if (migrationReport == null || !(tree instanceof J.CompilationUnit cu)) {
+            return super.visit(tree, executionContext);
+        }
+        usesSecurityCheck = false;
+        methodsRewritten = new ArrayList<>();
+        long start = System.nanoTime();
+        J result = super.visit(tree, executionContext);
+        long nanos = System.nanoTime() - start;
+
+        List<String> importsBefore = importedTypes(cu);
+        List<String> importsAfter = result instanceof J.CompilationUnit after ? importedTypes(after) : List.of();
+        migrationReport.recordVisit(cu.getSourcePath(), nanos, usesSecurityCheck, methodsRewritten,
+                importsAfter.stream().filter(i -> !importsBefore.contains(i)).toList(),
+                importsBefore.stream().filter(i -> !importsAfter.contains(i)).toList());
+        return result;
+    }
+
     // visit all method declarations
     @Override
     public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext executionContext) {
@@ -45,6 +82,7 @@ public class MigrateToAnnotationVisitor extends JavaIsoVisitor<ExecutionContext>
 
         // check if current md uses type com.acme.seclib.SecurityCheck
         if (shouldHandle(executionContext)) {
+            usesSecurityCheck = true;
 
             // get statements of method body
             List<Statement> statementsBefore = md.getBody().getStatements();
@@ -64,6 +102,7 @@ public class MigrateToAnnotationVisitor extends JavaIsoVisitor<ExecutionContext>
 
                 // add @Secured annotation to method
                 if (md.getAllAnnotations().stream().noneMatch(a -> a.getSimpleName().equals("Secured"))) {
+                    methodsRewritten.add(md.getSimpleName());
 
                     this.maybeAddImport(SECURED_ANNOTATION, null, false);
                     JavaTemplate javaTemplate = JavaTemplate.builder(() -> getCursor(), "@Secured").imports(SECURED_ANNOTATION).build();
@@ -81,6 +120,10 @@ public class MigrateToAnnotationVisitor extends JavaIsoVisitor<ExecutionContext>
         return usesType.isAcceptable(sourceFile, executionContext) && usesType.visit(sourceFile, executionContext) != sourceFile;
     }
 
+    private static List<String> importedTypes(J.CompilationUnit cu) {
+        return cu.getImports().stream().map(J.Import::getTypeName).toList();
+    }
+
     private boolean isNotSecurityCheckCall(Statement statement) {
         if (J.MethodInvocation.class.isInstance(statement)) {
             J.MethodInvocation methodInvocation = J.MethodInvocation.class.cast(statement);
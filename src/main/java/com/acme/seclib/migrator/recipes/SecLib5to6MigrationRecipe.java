@@ -15,13 +15,14 @@
  */
 package com.acme.seclib.migrator.recipes;
 
+import com.acme.seclib.migrator.report.MigrationReport;
+import org.openrewrite.ExecutionContext;
 import org.openrewrite.maven.UpgradeDependencyVersion;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.sbm.build.migration.conditions.AnyDeclaredDependencyExistMatchingRegex;
 import org.springframework.sbm.engine.recipe.*;
 import org.springframework.sbm.java.migration.conditions.HasAnyTypeReference;
-import org.springframework.sbm.support.openrewrite.GenericOpenRewriteRecipe;
 
 import java.util.List;
 
@@ -32,7 +33,7 @@ import java.util.List;
 public class SecLib5to6MigrationRecipe {
 
     @Bean
-    Recipe secLib5to6MigrationRecipeBean(RewriteRecipeLoader rewriteRecipeLoader, RewriteRecipeRunner rewriteRecipeRunner, RewriteMigrationResultMerger rewriteResultMerger) {
+    Recipe secLib5to6MigrationRecipeBean(RewriteRecipeLoader rewriteRecipeLoader, RewriteRecipeRunner rewriteRecipeRunner, MigrationReport migrationReport, ExecutionContext executionContext) {
 
         // Recipe bundles Actions and Conditions in a named recipe 'migrate-seclib-5-to-6'
         return Recipe.builder()
@@ -69,10 +70,10 @@ public class SecLib5to6MigrationRecipe {
                 )
                 // the 'migrate-code' action
                 .action(
-                        OpenRewriteRecipeAdapterAction.builder()
+                        MigrateToAnnotationAction.builder()
                         .description("Remove deprecated code and add @Secured annotation.")
-                        .resultMerger(rewriteResultMerger)
-                        .recipe(new GenericOpenRewriteRecipe<>(() -> new MigrateToAnnotationVisitor()))
+                        .migrationReport(migrationReport)
+                        .executionContext(executionContext)
                         .condition(new HasAnyTypeReference(List.of("com.acme.libsec.SecurityCheck")))
                         .build()
                 )
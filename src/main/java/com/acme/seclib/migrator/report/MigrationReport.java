@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.report;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects per-file costs and changes while a migration runs and streams them to a {@link MigrationReportWriter}.
+ *
+ * Every visit is written as soon as it is recorded, together with the parse time and size recorded by the scan,
+ * so the report shows the progress of a running migration and keeps what was done when it fails. Keys are the
+ * source paths relative to the project root, as found in {@code SourceFile.getSourcePath()}.
+ */
+@Component
+public class MigrationReport {
+
+    private final Map<Path, Parse> parses = new ConcurrentHashMap<>();
+    private final Set<Path> reported = ConcurrentHashMap.newKeySet();
+    private MigrationReportWriter writer;
+
+    /**
+     * Writes every following visit to {@code writer}.
+     */
+    public synchronized void writeTo(MigrationReportWriter writer) {
+        this.writer = writer;
+    }
+
+    public void recordParse(Path sourcePath, long nanos, long bytes) {
+        parses.put(sourcePath, new Parse(nanos, bytes));
+    }
+
+    public void recordVisit(Path sourcePath, long nanos, boolean usesSecurityCheck, List<String> methodsRewritten, List<String> importsAdded, List<String> importsRemoved) {
+        String skippedBy = usesSecurityCheck ? null : SourceFileReport.SKIPPED_BY_CONDITION;
+        write(report(sourcePath, toMillis(nanos), methodsRewritten, importsAdded, importsRemoved, skippedBy));
+    }
+
+    /**
+     * Writes the parsed sources that were never visited, because the action's condition kept the visitor from
+     * running at all, and stops writing.
+     */
+    public synchronized void finish() {
+        parses.keySet().stream()
+                .filter(sourcePath -> !reported.contains(sourcePath))
+                .sorted()
+                .forEach(sourcePath -> write(report(sourcePath, 0, List.of(), List.of(), List.of(), SourceFileReport.SKIPPED_BY_CONDITION)));
+        writer = null;
+    }
+
+    private SourceFileReport report(Path sourcePath, double visitTimeMs, List<String> methodsRewritten, List<String> importsAdded, List<String> importsRemoved, @Nullable String skippedBy) {
+        Parse parse = parses.get(sourcePath);
+        Double parseTimeMs = parse == null ? null : toMillis(parse.nanos());
+        Long bytes = parse == null ? null : parse.bytes();
+        return new SourceFileReport(sourcePath.toString(), parseTimeMs, visitTimeMs, bytes, methodsRewritten, importsAdded, importsRemoved, skippedBy);
+    }
+
+    private synchronized void write(SourceFileReport report) {
+        reported.add(Path.of(report.path()));
+        if (writer != null) {
+            writer.write(report);
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    private record Parse(long nanos, long bytes) {
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes {@link SourceFileReport}s as JSON Lines, one record per line, flushing every line so the report can be
+ * followed while the migration runs.
+ */
+public class MigrationReportWriter {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().build();
+
+    private final ObjectWriter objectWriter = OBJECT_MAPPER.writerFor(SourceFileReport.class);
+    private final Writer writer;
+
+    public MigrationReportWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void write(SourceFileReport report) {
+        try {
+            writer.write(objectWriter.writeValueAsString(report));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write report for " + report.path(), e);
+        }
+    }
+}
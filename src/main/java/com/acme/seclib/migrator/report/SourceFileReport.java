@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.report;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One line of the migration report.
+ *
+ * {@code parseTimeMs} and {@code bytes} are absent when the file was not parsed by the scan,
+ * {@code skippedBy} is absent when the file was migrated.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SourceFileReport(
+        String path,
+        Double parseTimeMs,
+        double visitTimeMs,
+        Long bytes,
+        List<String> methodsRewritten,
+        List<String> importsAdded,
+        List<String> importsRemoved,
+        String skippedBy
+) {
+    public static final String SKIPPED_BY_CONDITION = "condition";
+}
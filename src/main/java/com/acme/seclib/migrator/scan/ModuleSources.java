@@ -0,0 +1,32 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.scan;
+
+import org.openrewrite.marker.Marker;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The Java sources of one Maven module.
+ *
+ * @param directory    the absolute module directory
+ * @param markers      the markers of the module's POM that apply to all its sources, without the Maven resolution result
+ * @param mainSources  absolute paths of the sources in {@code src/main/java}
+ * @param testSources  absolute paths of the sources in {@code src/test/java}
+ */
+record ModuleSources(Path directory, List<Marker> markers, List<Path> mainSources, List<Path> testSources) {
+}
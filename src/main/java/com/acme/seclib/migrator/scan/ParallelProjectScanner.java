@@ -0,0 +1,192 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.scan;
+
+import com.acme.seclib.migrator.lst.SpillingLstStore;
+import com.acme.seclib.migrator.lst.StoredJavaSource;
+import com.acme.seclib.migrator.report.MigrationReport;
+import com.acme.seclib.migrator.scan.ParseUnitParser.ParsedUnit;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.maven.tree.MavenResolutionResult;
+import org.openrewrite.xml.tree.Xml;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.sbm.engine.context.ProjectContext;
+import org.springframework.sbm.engine.context.ProjectContextFactory;
+import org.springframework.sbm.engine.git.GitSupport;
+import org.springframework.sbm.project.parser.MavenProjectParser;
+import org.springframework.sbm.project.parser.PathScanner;
+import org.springframework.sbm.project.resource.ProjectResourceSet;
+import org.springframework.sbm.project.resource.RewriteSourceFileHolder;
+import org.springframework.sbm.project.resource.RewriteSourceFileWrapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Scans a project like {@code ScanCommand} does, but parses the Java sources of independent modules concurrently.
+ *
+ * The Java sources in the {@code src/main/java} and {@code src/test/java} roots of the modules are parsed here, all
+ * other resources, POMs included, are parsed once by the {@link MavenProjectParser}, so Maven resolution runs once
+ * per scan. The resolved POMs split the Java sources into {@link ParseUnit}s, which the
+ * {@link ParseUnitParser} parses on at most {@code seclib.migrator.scan.parallelism} threads. The parsed sources
+ * are put back into scan order and wrapped into a {@link ProjectContext} the same way
+ * {@code ProjectContextInitializer} does it.
+ *
+ * With the LST store enabled, every unit's compilation units are moved into the store as soon as the unit is parsed
+ * and only their hollow copies are carried on, so the project is never on the heap as a whole.
+ */
+@Component
+public class ParallelProjectScanner {
+
+    private final PathScanner pathScanner;
+    private final MavenProjectParser mavenProjectParser;
+    private final RewriteSourceFileWrapper rewriteSourceFileWrapper;
+    private final ProjectContextFactory projectContextFactory;
+    private final GitSupport gitSupport;
+    private final ExecutionContext executionContext;
+    private final MigrationReport migrationReport;
+    private final Optional<SpillingLstStore<UUID, SourceFile>> lstStore;
+    private final int parallelism;
+
+    public ParallelProjectScanner(PathScanner pathScanner,
+                                  MavenProjectParser mavenProjectParser,
+                                  RewriteSourceFileWrapper rewriteSourceFileWrapper,
+                                  ProjectContextFactory projectContextFactory,
+                                  GitSupport gitSupport,
+                                  ExecutionContext executionContext,
+                                  MigrationReport migrationReport,
+                                  Optional<SpillingLstStore<UUID, SourceFile>> lstStore,
+                                  @Value("${seclib.migrator.scan.parallelism:0}") int parallelism) {
+        this.pathScanner = pathScanner;
+        this.mavenProjectParser = mavenProjectParser;
+        this.rewriteSourceFileWrapper = rewriteSourceFileWrapper;
+        this.projectContextFactory = projectContextFactory;
+        this.gitSupport = gitSupport;
+        this.executionContext = executionContext;
+        this.migrationReport = migrationReport;
+        this.lstStore = lstStore;
+        // 0 means one thread per core
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public ProjectContext scan(String projectRoot) {
+        return scan(Path.of(projectRoot), parallelism);
+    }
+
+    public ProjectContext scan(Path projectRoot, int parallelism) {
+        Path baseDir = projectRoot.toAbsolutePath().normalize();
+        List<Resource> resources = pathScanner.scan(baseDir);
+        List<SourceFile> sourceFiles = parse(baseDir, resources, parallelism);
+
+        List<RewriteSourceFileHolder<? extends SourceFile>> rewriteSourceFileHolders = rewriteSourceFileWrapper.wrapRewriteSourceFiles(baseDir, sourceFiles);
+        ProjectResourceSet projectResourceSet = new ProjectResourceSet(rewriteSourceFileHolders);
+        ProjectContext projectContext = projectContextFactory.createProjectContext(baseDir, projectResourceSet);
+        gitSupport.getLatestCommit(baseDir.toFile()).map(RevCommit::getName).ifPresent(projectContext::setRevision);
+        lstStore.ifPresent(store -> verifyStored(projectContext));
+        return projectContext;
+    }
+
+    private List<SourceFile> parse(Path baseDir, List<Resource> resources, int parallelism) {
+        Set<Path> moduleDirs = resources.stream()
+                .map(ParallelProjectScanner::pathOf)
+                .filter(path -> path.getFileName().toString().equals("pom.xml"))
+                .map(Path::getParent)
+                .collect(Collectors.toSet());
+        List<Resource> otherResources = new ArrayList<>();
+        List<Path> javaSources = new ArrayList<>();
+        for (Resource resource : resources) {
+            Path path = pathOf(resource);
+            if (ParseUnitPartitioner.isJavaSource(path, moduleDirs)) {
+                javaSources.add(path);
+            } else {
+                otherResources.add(resource);
+            }
+        }
+
+        List<SourceFile> sourceFiles = new ArrayList<>(mavenProjectParser.parse(baseDir, otherResources));
+        List<Xml.Document> poms = sourceFiles.stream()
+                .filter(Xml.Document.class::isInstance)
+                .map(Xml.Document.class::cast)
+                .filter(document -> document.getMarkers().findFirst(MavenResolutionResult.class).isPresent())
+                .toList();
+
+        List<ParseUnit> units = new ParseUnitPartitioner(executionContext).partition(baseDir, poms, javaSources);
+        UnaryOperator<J.CompilationUnit> retain = lstStore
+                .<UnaryOperator<J.CompilationUnit>>map(store -> cu -> StoredJavaSource.detach(cu, store))
+                .orElse(UnaryOperator.identity());
+        for (ParsedUnit parsedUnit : new ParseUnitParser(baseDir, executionContext).parse(units, parallelism, retain)) {
+            sourceFiles.addAll(parsedUnit.compilationUnits());
+            attributeParseTime(baseDir, parsedUnit);
+        }
+        return inScanOrder(baseDir, resources, sourceFiles);
+    }
+
+    // javac works on the whole unit, its time is shared among the unit's sources by size
+    private void attributeParseTime(Path baseDir, ParsedUnit parsedUnit) {
+        Map<Path, Long> sizes = new HashMap<>();
+        for (J.CompilationUnit cu : parsedUnit.compilationUnits()) {
+            sizes.put(cu.getSourcePath(), baseDir.resolve(cu.getSourcePath()).toFile().length());
+        }
+        long totalSize = Math.max(1, sizes.values().stream().mapToLong(Long::longValue).sum());
+        sizes.forEach((sourcePath, size) -> migrationReport.recordParse(sourcePath, Math.round((double) parsedUnit.nanos() * size / totalSize), size));
+    }
+
+    // the hollow copies are useless unless the store's wrapper was the last one to wrap them
+    private static void verifyStored(ProjectContext projectContext) {
+        projectContext.getProjectResources().stream()
+                .filter(holder -> !(holder instanceof StoredJavaSource))
+                .filter(holder -> holder.getSourceFile() instanceof J.CompilationUnit)
+                .findFirst()
+                .ifPresent(holder -> {
+                    throw new IllegalStateException("%s was wrapped as %s instead of %s".formatted(
+                            holder.getSourcePath(), holder.getClass().getName(), StoredJavaSource.class.getName()));
+                });
+    }
+
+    private List<SourceFile> inScanOrder(Path baseDir, List<Resource> resources, List<SourceFile> sourceFiles) {
+        Map<Path, Integer> scanOrder = new HashMap<>();
+        for (Resource resource : resources) {
+            scanOrder.putIfAbsent(baseDir.relativize(pathOf(resource)), scanOrder.size());
+        }
+        List<SourceFile> ordered = new ArrayList<>(sourceFiles);
+        ordered.sort(Comparator.comparingInt(sourceFile -> scanOrder.getOrDefault(sourceFile.getSourcePath(), Integer.MAX_VALUE)));
+        return ordered;
+    }
+
+    private static Path pathOf(Resource resource) {
+        try {
+            return resource.getFile().toPath().toAbsolutePath().normalize();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.scan;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Modules whose Java sources are parsed in one compilation, because they depend on each other in the reactor.
+ *
+ * @param modules        the modules with their Java sources, POMs are parsed separately
+ * @param mainClasspath  the downloaded compile dependencies of all modules, without the reactor modules themselves
+ * @param testClasspath  the downloaded test dependencies of all modules, without the reactor modules themselves
+ */
+record ParseUnit(List<ModuleSources> modules, List<Path> mainClasspath, List<Path> testClasspath) {
+
+    List<Path> mainSources() {
+        return modules.stream().flatMap(module -> module.mainSources().stream()).toList();
+    }
+
+    List<Path> testSources() {
+        return modules.stream().flatMap(module -> module.testSources().stream()).toList();
+    }
+}
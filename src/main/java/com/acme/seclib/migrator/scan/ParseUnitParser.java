@@ -0,0 +1,159 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.scan;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.internal.JavaTypeCache;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.marker.Marker;
+import org.openrewrite.marker.Markers;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+/**
+ * Parses the Java sources of {@link ParseUnit}s on a bounded number of threads.
+ *
+ * Units with the same main classpath form a lane that runs on one thread and shares one {@link JavaTypeCache},
+ * because the cache is not thread-safe. Lanes run concurrently. When there are fewer lanes than threads, the
+ * largest lanes are split, trading a shared cache for parallelism. Every unit gets its own {@link JavaParser},
+ * so no compiler state is shared between threads.
+ *
+ * Every compilation unit is handed to a {@code retain} function right after its unit was parsed, and the parsed
+ * units keep what it returns. That lets the scan move trees out of the heap while the other units are parsed.
+ */
+class ParseUnitParser {
+
+    private final Path baseDir;
+    private final ExecutionContext executionContext;
+
+    ParseUnitParser(Path baseDir, ExecutionContext executionContext) {
+        this.baseDir = baseDir;
+        this.executionContext = executionContext;
+    }
+
+    /**
+     * @param retain  called on the parsing thread with every compilation unit, returns what is kept of it
+     * @return the parsed units in the order of {@code units}
+     */
+    List<ParsedUnit> parse(List<ParseUnit> units, int parallelism, UnaryOperator<J.CompilationUnit> retain) {
+        List<List<ParseUnit>> lanes = lanes(units, parallelism);
+        if (lanes.size() < 2) {
+            return parseLane(units, retain);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, lanes.size()));
+        try {
+            List<Future<List<ParsedUnit>>> parsedLanes = new ArrayList<>();
+            for (List<ParseUnit> lane : lanes) {
+                parsedLanes.add(executor.submit(() -> parseLane(lane, retain)));
+            }
+            Map<ParseUnit, ParsedUnit> parsedUnits = new LinkedHashMap<>();
+            for (Future<List<ParsedUnit>> parsedLane : parsedLanes) {
+                parsedLane.get().forEach(parsedUnit -> parsedUnits.put(parsedUnit.unit(), parsedUnit));
+            }
+            return units.stream().map(parsedUnits::get).toList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing " + baseDir, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Could not parse " + baseDir, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static List<List<ParseUnit>> lanes(List<ParseUnit> units, int parallelism) {
+        Map<List<Path>, List<ParseUnit>> byClasspath = new LinkedHashMap<>();
+        units.forEach(unit -> byClasspath.computeIfAbsent(unit.mainClasspath(), k -> new ArrayList<>()).add(unit));
+        List<List<ParseUnit>> lanes = new ArrayList<>(byClasspath.values());
+        while (!lanes.isEmpty() && lanes.size() < parallelism) {
+            List<ParseUnit> largest = lanes.stream().max(Comparator.comparingInt(List::size)).orElseThrow();
+            if (largest.size() < 2) {
+                break;
+            }
+            int half = largest.size() / 2;
+            lanes.set(lanes.indexOf(largest), largest.subList(0, half));
+            lanes.add(largest.subList(half, largest.size()));
+        }
+        return lanes;
+    }
+
+    private List<ParsedUnit> parseLane(List<ParseUnit> lane, UnaryOperator<J.CompilationUnit> retain) {
+        JavaTypeCache typeCache = new JavaTypeCache();
+        return lane.stream().map(unit -> parseUnit(unit, typeCache, retain)).toList();
+    }
+
+    private ParsedUnit parseUnit(ParseUnit unit, JavaTypeCache typeCache, UnaryOperator<J.CompilationUnit> retain) {
+        long start = System.nanoTime();
+        JavaParser javaParser = JavaParser.fromJavaVersion()
+                .classpath(unit.mainClasspath())
+                .typeCache(typeCache)
+                .logCompilationWarningsAndErrors(false)
+                .build();
+        javaParser.setSourceSet("main");
+        List<J.CompilationUnit> compilationUnits = new ArrayList<>(javaParser.parse(unit.mainSources(), baseDir, executionContext));
+
+        List<Path> testSources = unit.testSources();
+        if (!testSources.isEmpty()) {
+            // the parser is not reset, so the main types stay visible to the tests
+            javaParser.setClasspath(unit.testClasspath());
+            javaParser.setSourceSet("test");
+            compilationUnits.addAll(javaParser.parse(testSources, baseDir, executionContext));
+        }
+        javaParser.reset();
+
+        long nanos = System.nanoTime() - start;
+        Map<Path, ModuleSources> modulesBySource = new HashMap<>();
+        for (ModuleSources module : unit.modules()) {
+            module.mainSources().forEach(source -> modulesBySource.put(source, module));
+            module.testSources().forEach(source -> modulesBySource.put(source, module));
+        }
+        List<J.CompilationUnit> retained = compilationUnits.stream()
+                .map(cu -> retain.apply(addModuleMarkers(modulesBySource, cu)))
+                .toList();
+        return new ParsedUnit(unit, retained, nanos);
+    }
+
+    private J.CompilationUnit addModuleMarkers(Map<Path, ModuleSources> modulesBySource, J.CompilationUnit cu) {
+        ModuleSources module = modulesBySource.get(baseDir.resolve(cu.getSourcePath()).normalize());
+        if (module == null) {
+            return cu;
+        }
+        Markers markers = cu.getMarkers();
+        for (Marker marker : module.markers()) {
+            markers = markers.addIfAbsent(marker);
+        }
+        return cu.withMarkers(markers);
+    }
+
+    record ParsedUnit(ParseUnit unit, List<J.CompilationUnit> compilationUnits, long nanos) {
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.scan;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.marker.Marker;
+import org.openrewrite.maven.MavenExecutionContextView;
+import org.openrewrite.maven.MavenSettings;
+import org.openrewrite.maven.cache.LocalMavenArtifactCache;
+import org.openrewrite.maven.tree.MavenRepository;
+import org.openrewrite.maven.tree.MavenResolutionResult;
+import org.openrewrite.maven.tree.ResolvedDependency;
+import org.openrewrite.maven.tree.Scope;
+import org.openrewrite.maven.utilities.MavenArtifactDownloader;
+import org.openrewrite.xml.tree.Xml;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Splits a project's Java sources into {@link ParseUnit}s.
+ *
+ * Like SBM's {@code MavenProjectParser}, only {@code src/main/java} and {@code src/test/java} of a module are Java
+ * source roots, see {@link #isJavaSource(Path, Collection)}. Modules that depend on each other in the reactor end up
+ * in the same unit, so references between them are attributed from source, as in one sequential parse. Independent
+ * modules end up in different units that can be parsed concurrently.
+ */
+class ParseUnitPartitioner {
+
+    private static final Path MAIN_JAVA = Path.of("src", "main", "java");
+    private static final Path TEST_JAVA = Path.of("src", "test", "java");
+
+    private final ExecutionContext executionContext;
+
+    ParseUnitPartitioner(ExecutionContext executionContext) {
+        this.executionContext = executionContext;
+    }
+
+    /**
+     * @param baseDir      the absolute project root
+     * @param poms         the parsed POMs carrying their {@link MavenResolutionResult}, in scan order
+     * @param javaSources  absolute paths of the Java sources, in scan order, files outside the source roots are ignored
+     */
+    List<ParseUnit> partition(Path baseDir, List<Xml.Document> poms, List<Path> javaSources) {
+        Map<Path, MavenResolutionResult> modules = new LinkedHashMap<>();
+        for (Xml.Document pom : poms) {
+            pom.getMarkers().findFirst(MavenResolutionResult.class).ifPresent(resolution ->
+                    modules.put(baseDir.resolve(pom.getSourcePath()).normalize().getParent(), resolution));
+        }
+        Map<Path, List<Marker>> moduleMarkers = new HashMap<>();
+        for (Xml.Document pom : poms) {
+            moduleMarkers.put(baseDir.resolve(pom.getSourcePath()).normalize().getParent(), pom.getMarkers().getMarkers().stream()
+                    .filter(marker -> !(marker instanceof MavenResolutionResult))
+                    .toList());
+        }
+
+        Map<Path, List<Path>> mainSources = new LinkedHashMap<>();
+        Map<Path, List<Path>> testSources = new LinkedHashMap<>();
+        for (Path javaSource : javaSources) {
+            sourceRoot(javaSource, modules.keySet()).ifPresent(sourceRoot -> {
+                Map<Path, List<Path>> sources = sourceRoot.endsWith(TEST_JAVA) ? testSources : mainSources;
+                sources.computeIfAbsent(moduleDir(sourceRoot), k -> new ArrayList<>()).add(javaSource);
+            });
+        }
+
+        Map<String, Path> reactor = new HashMap<>();
+        modules.forEach((dir, resolution) -> reactor.put(coordinates(resolution), dir));
+        ReactorComponents components = new ReactorComponents();
+        modules.forEach((dir, resolution) -> {
+            components.add(dir);
+            allDependencies(resolution).stream()
+                    .map(reactor::get)
+                    .filter(Objects::nonNull)
+                    .forEach(dependencyDir -> components.union(dir, dependencyDir));
+        });
+        List<ParseUnit> units = new ArrayList<>();
+        for (List<Path> component : components.all()) {
+            List<ModuleSources> moduleSources = component.stream()
+                    .filter(dir -> mainSources.containsKey(dir) || testSources.containsKey(dir))
+                    .map(dir -> new ModuleSources(dir, moduleMarkers.getOrDefault(dir, List.of()),
+                            mainSources.getOrDefault(dir, List.of()), testSources.getOrDefault(dir, List.of())))
+                    .toList();
+            if (moduleSources.isEmpty()) {
+                continue;
+            }
+            List<MavenResolutionResult> resolutions = component.stream().map(modules::get).filter(Objects::nonNull).toList();
+            units.add(new ParseUnit(moduleSources,
+                    classpath(resolutions, reactor, Scope.Compile, Scope.Provided),
+                    classpath(resolutions, reactor, Scope.Test)));
+        }
+        return units;
+    }
+
+    /**
+     * @param file        an absolute path
+     * @param moduleDirs  the absolute directories of all modules
+     * @return whether SBM parses the file as a Java source
+     */
+    static boolean isJavaSource(Path file, Collection<Path> moduleDirs) {
+        return file.getFileName().toString().endsWith(".java") && sourceRoot(file, moduleDirs).isPresent();
+    }
+
+    // the closest src/main/java or src/test/java above the file that belongs to a module
+    private static Optional<Path> sourceRoot(Path file, Collection<Path> moduleDirs) {
+        for (Path dir = file.getParent(); dir != null && dir.getNameCount() >= MAIN_JAVA.getNameCount(); dir = dir.getParent()) {
+            if ((dir.endsWith(MAIN_JAVA) || dir.endsWith(TEST_JAVA)) && moduleDirs.contains(moduleDir(dir))) {
+                return Optional.of(dir);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Path moduleDir(Path sourceRoot) {
+        return sourceRoot.getParent().getParent().getParent();
+    }
+
+    private List<Path> classpath(List<MavenResolutionResult> resolutions, Map<String, Path> reactor, Scope... scopes) {
+        Set<Path> classpath = new LinkedHashSet<>();
+        for (MavenResolutionResult resolution : resolutions) {
+            MavenArtifactDownloader downloader = new MavenArtifactDownloader(
+                    new LocalMavenArtifactCache(localRepository(resolution)), resolution.getMavenSettings(), executionContext.getOnError());
+            for (Scope scope : scopes) {
+                for (ResolvedDependency dependency : resolution.getDependencies().getOrDefault(scope, List.of())) {
+                    // reactor modules are parsed from source in the same unit
+                    if (!reactor.containsKey(coordinates(dependency)) && !"pom".equals(dependency.getType())) {
+                        Path artifact = downloader.downloadArtifact(dependency);
+                        if (artifact != null) {
+                            classpath.add(artifact);
+                        }
+                    }
+                }
+            }
+        }
+        // sorted, so units with the same dependencies have equal classpaths
+        return classpath.stream().sorted().toList();
+    }
+
+    // the localRepository of the settings.xml the POM was resolved with, else the one Maven resolution used
+    private Path localRepository(MavenResolutionResult resolution) {
+        MavenSettings settings = resolution.getMavenSettings();
+        MavenRepository localRepository = settings != null && settings.getMavenLocal() != null
+                ? settings.getMavenLocal()
+                : MavenExecutionContextView.view(executionContext).getLocalRepository();
+        return Path.of(URI.create(localRepository.getUri()));
+    }
+
+    private static List<String> allDependencies(MavenResolutionResult resolution) {
+        return resolution.getDependencies().values().stream()
+                .flatMap(List::stream)
+                .map(ParseUnitPartitioner::coordinates)
+                .distinct()
+                .toList();
+    }
+
+    private static String coordinates(MavenResolutionResult resolution) {
+        return resolution.getPom().getGroupId() + ":" + resolution.getPom().getArtifactId();
+    }
+
+    private static String coordinates(ResolvedDependency dependency) {
+        return dependency.getGroupId() + ":" + dependency.getArtifactId();
+    }
+
+    /**
+     * Union-find over module directories, keeping the order in which modules were added.
+     */
+    private static class ReactorComponents {
+
+        private final Map<Path, Path> parents = new LinkedHashMap<>();
+
+        void add(Path module) {
+            parents.putIfAbsent(module, module);
+        }
+
+        void union(Path a, Path b) {
+            add(a);
+            add(b);
+            Path rootA = find(a);
+            Path rootB = find(b);
+            if (!rootA.equals(rootB)) {
+                parents.put(rootB, rootA);
+            }
+        }
+
+        List<List<Path>> all() {
+            Map<Path, List<Path>> components = new LinkedHashMap<>();
+            for (Path module : parents.keySet()) {
+                components.computeIfAbsent(find(module), k -> new ArrayList<>()).add(module);
+            }
+            return new ArrayList<>(components.values());
+        }
+
+        private Path find(Path module) {
+            Path parent = parents.get(module);
+            if (parent.equals(module)) {
+                return module;
+            }
+            Path root = find(parent);
+            parents.put(module, root);
+            return root;
+        }
+    }
+}
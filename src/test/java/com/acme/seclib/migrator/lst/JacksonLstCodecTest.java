@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.search.SemanticallyEqual;
+import org.openrewrite.java.tree.J;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JacksonLstCodecTest {
+
+    @Test
+    @DisplayName("A compilation unit survives the round trip with its types")
+    void roundTripsCompilationUnit() {
+        J.CompilationUnit cu = JavaParser.fromJavaVersion().build().parse(new InMemoryExecutionContext(), """
+                package com.acme.business;
+
+                import java.util.List;
+
+                public class BusinessService {
+
+                    private List<String> names;
+
+                    /**
+                     * Returns the first name.
+                     */
+                    public String firstName(String fallback) {
+                        return names.isEmpty() ? fallback : names.get(0).trim();
+                    }
+                }
+                """).get(0);
+        JacksonLstCodec codec = new JacksonLstCodec();
+
+        SourceFile decoded = codec.decode(codec.encode(cu));
+
+        assertThat(decoded).isInstanceOf(J.CompilationUnit.class);
+        J.CompilationUnit decodedCu = (J.CompilationUnit) decoded;
+        assertThat(decodedCu.printAll()).isEqualTo(cu.printAll());
+        assertThat(decodedCu.getSourcePath()).isEqualTo(cu.getSourcePath());
+        assertThat(decodedCu.getId()).isEqualTo(cu.getId());
+        assertThat(decodedCu.getMarkers().getMarkers()).isEqualTo(cu.getMarkers().getMarkers());
+        // the types are shared with the encoded tree, not copied
+        assertThat(decodedCu.getTypesInUse().getTypesInUse()).containsExactlyInAnyOrderElementsOf(cu.getTypesInUse().getTypesInUse());
+        assertThat(decodedCu.getClasses().get(0).getType()).isSameAs(cu.getClasses().get(0).getType());
+    }
+
+    @Test
+    @DisplayName("Literal values keep their primitive type")
+    void keepsLiteralValueTypes() {
+        J.CompilationUnit cu = JavaParser.fromJavaVersion().build().parse(new InMemoryExecutionContext(), """
+                class Literals {
+                    byte b = (byte) 1;
+                    short s = (short) 2;
+                    int i = 3;
+                    long l = 5L;
+                    float f = 1.5f;
+                    double d = 2.5d;
+                    char c = 'c';
+                    boolean t = true;
+                    String text = "text";
+                    Object nothing = null;
+                }
+                """).get(0);
+        JacksonLstCodec codec = new JacksonLstCodec();
+
+        J.CompilationUnit decoded = (J.CompilationUnit) codec.decode(codec.encode(cu));
+
+        assertThat(literalValues(decoded)).containsExactlyElementsOf(literalValues(cu));
+        assertThat(literalValues(decoded)).extracting(value -> value == null ? null : value.getClass().getSimpleName())
+                .containsExactly("Integer", "Integer", "Integer", "Long", "Float", "Double", "Character", "Boolean", "String", null);
+        assertThat(SemanticallyEqual.areEqual(decoded, cu)).isTrue();
+    }
+
+    private static List<Object> literalValues(J.CompilationUnit cu) {
+        List<Object> values = new ArrayList<>();
+        new JavaIsoVisitor<List<Object>>() {
+            @Override
+            public J.Literal visitLiteral(J.Literal literal, List<Object> literals) {
+                literals.add(literal.getValue());
+                return literal;
+            }
+        }.visit(cu, values);
+        return values;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import com.acme.seclib.migrator.MigratorApp;
+import com.acme.seclib.migrator.scan.ParallelProjectScanner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.sbm.engine.commands.ApplyCommand;
+import org.springframework.sbm.engine.context.ProjectContext;
+import org.springframework.sbm.project.resource.RewriteSourceFileHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = MigratorApp.class, properties = {
+        "sbm.gitSupportEnabled=false",
+        "seclib.migrator.lst-store.enabled=true",
+        "seclib.migrator.lst-store.max-resident=1"
+})
+@ActiveProfiles("test")
+public class LstStoreIntegrationTest {
+
+    private static final Path MULTI_MODULE_PROJECT = Path.of("src/test/resources/multi-module-project");
+
+    @Autowired
+    ParallelProjectScanner projectScanner;
+
+    @Autowired
+    ApplyCommand applyCommand;
+
+    @Autowired
+    SpillingLstStore<UUID, SourceFile> lstStore;
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    @DisplayName("Every Java source of a scanned project is backed by the store through the migration")
+    void javaSourcesStayInStore() throws IOException {
+        FileSystemUtils.copyRecursively(MULTI_MODULE_PROJECT, projectDir);
+
+        ProjectContext projectContext = projectScanner.scan(projectDir, 2);
+
+        List<RewriteSourceFileHolder<? extends SourceFile>> javaSources = projectContext.getProjectResources().stream()
+                .filter(holder -> holder.getSourceFile() instanceof J.CompilationUnit)
+                .toList();
+        assertThat(javaSources).hasSize(4).allMatch(StoredJavaSource.class::isInstance);
+        assertThat(lstStore.residentCount()).isLessThanOrEqualTo(1);
+
+        applyCommand.execute(projectContext, "migrate-seclib-5-to-6");
+
+        assertThat(projectContext.getProjectResources().stream()
+                .filter(holder -> holder.getSourceFile() instanceof J.CompilationUnit))
+                .allMatch(StoredJavaSource.class::isInstance);
+        assertThat(lstStore.residentCount()).isLessThanOrEqualTo(1);
+    }
+}
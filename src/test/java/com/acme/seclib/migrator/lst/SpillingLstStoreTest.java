@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpillingLstStoreTest {
+
+    private static final LstCodec<String> STRING_CODEC = new LstCodec<>() {
+        @Override
+        public byte[] encode(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Least recently used entries are spilled and loaded back on access")
+    void spillsLeastRecentlyUsed() {
+        try (SpillingLstStore<String, String> store = new SpillingLstStore<>(tempDir.resolve("lst.seg"), 2, STRING_CODEC)) {
+            store.put("A.java", "class A {}");
+            store.put("B.java", "class B {}");
+            // touch A so B becomes the eldest
+            store.get("A.java");
+            store.put("C.java", "class C {}");
+
+            assertThat(store.residentCount()).isEqualTo(2);
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.segmentSize()).isEqualTo("class B {}".length());
+
+            assertThat(store.get("B.java")).contains("class B {}");
+            assertThat(store.get("A.java")).contains("class A {}");
+            assertThat(store.get("C.java")).contains("class C {}");
+            assertThat(store.get("D.java")).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Unchanged entries are not written again, replaced entries are")
+    void onlyWritesChangedEntries() {
+        try (SpillingLstStore<String, String> store = new SpillingLstStore<>(tempDir.resolve("lst.seg"), 1, STRING_CODEC)) {
+            store.put("A.java", "class A {}");
+            store.put("B.java", "class B {}");
+            long afterFirstSpill = store.segmentSize();
+
+            // loading A evicts B which is written, loading B again evicts the untouched A
+            store.get("A.java");
+            store.get("B.java");
+            assertThat(store.segmentSize()).isEqualTo(afterFirstSpill + "class B {}".length());
+
+            store.put("B.java", "class B { void m() {} }");
+            store.get("A.java");
+            assertThat(store.get("B.java")).contains("class B { void m() {} }");
+        }
+    }
+
+    @Test
+    @DisplayName("Slots of replaced and removed entries are reclaimed")
+    void compactsDeadSlots() {
+        try (SpillingLstStore<String, String> store = new SpillingLstStore<>(tempDir.resolve("lst.seg"), 1, STRING_CODEC)) {
+            // every put evicts the other entry, which is written again
+            for (int i = 0; i < 100; i++) {
+                store.put("A.java", "class A { int i = %03d; }".formatted(i));
+                store.put("B.java", "class B { int i = %03d; }".formatted(i));
+            }
+            int length = "class A { int i = 000; }".length();
+            assertThat(store.segmentSize()).isLessThanOrEqualTo(4L * length);
+            assertThat(store.get("A.java")).contains("class A { int i = 099; }");
+            assertThat(store.get("B.java")).contains("class B { int i = 099; }");
+
+            store.remove("A.java");
+            store.remove("B.java");
+            assertThat(store.segmentSize()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Removed entries are gone from heap and segment index")
+    void removesEntries() {
+        try (SpillingLstStore<String, String> store = new SpillingLstStore<>(tempDir.resolve("lst.seg"), 1, STRING_CODEC)) {
+            store.put("A.java", "class A {}");
+            store.put("B.java", "class B {}");
+            store.remove("A.java");
+
+            assertThat(store.contains("A.java")).isFalse();
+            assertThat(store.get("A.java")).isEmpty();
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+}
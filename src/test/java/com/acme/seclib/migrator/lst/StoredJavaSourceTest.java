@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.lst;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.springframework.sbm.java.refactoring.JavaRefactoring;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class StoredJavaSourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Java sources keep their trees in the store, not on the holder")
+    void keepsTreesInStore() {
+        JavaParser javaParser = JavaParser.fromJavaVersion().build();
+        List<J.CompilationUnit> compilationUnits = javaParser.parse(new InMemoryExecutionContext(),
+                "package com.acme; import java.util.List; class A { List<String> names; }",
+                "package com.acme; class B { A a; }",
+                "package com.acme; class C { B b; }");
+
+        try (SpillingLstStore<UUID, SourceFile> store = new SpillingLstStore<>(tempDir.resolve("lst.seg"), 1, new JacksonLstCodec())) {
+            List<StoredJavaSource> javaSources = compilationUnits.stream()
+                    .map(cu -> new StoredJavaSource(tempDir, cu, mock(JavaRefactoring.class), javaParser, store))
+                    .toList();
+
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.residentCount()).isEqualTo(1);
+            for (int i = 0; i < compilationUnits.size(); i++) {
+                J.CompilationUnit cu = compilationUnits.get(i);
+                assertThat(javaSources.get(i).print()).isEqualTo(cu.printAll());
+                assertThat(javaSources.get(i).getSourcePath()).isEqualTo(cu.getSourcePath());
+                assertThat(javaSources.get(i).getSourceFile().getTypesInUse().getTypesInUse())
+                        .containsExactlyInAnyOrderElementsOf(cu.getTypesInUse().getTypesInUse());
+            }
+            assertThat(store.residentCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Replaced trees are written to the store")
+    void replacesTreeInStore() {
+        JavaParser javaParser = JavaParser.fromJavaVersion().build();
+        J.CompilationUnit cu = javaParser.parse(new InMemoryExecutionContext(), "package com.acme; import java.util.List; class A {}").get(0);
+
+        try (SpillingLstStore<UUID, SourceFile> store = new SpillingLstStore<>(tempDir.resolve("lst.seg"), 1, new JacksonLstCodec())) {
+            StoredJavaSource javaSource = new StoredJavaSource(tempDir, cu, mock(JavaRefactoring.class), javaParser, store);
+
+            javaSource.replaceWith(cu.withImports(List.of()));
+
+            assertThat(javaSource.print()).isEqualTo("package com.acme; class A {}");
+            assertThat(store.get(cu.getId())).containsSame(javaSource.getSourceFile());
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Detached trees are carried as hollow copies and read back from the store")
+    void detachesTreesIntoStore() {
+        JavaParser javaParser = JavaParser.fromJavaVersion().build();
+        J.CompilationUnit cu = javaParser.parse(new InMemoryExecutionContext(), "package com.acme; import java.util.List; class A { List<String> names; }").get(0);
+
+        try (SpillingLstStore<UUID, SourceFile> store = new SpillingLstStore<>(tempDir.resolve("lst.seg"), 1, new JacksonLstCodec())) {
+            J.CompilationUnit hollow = StoredJavaSource.detach(cu, store);
+            StoredJavaSource javaSource = new StoredJavaSource(tempDir, hollow, mock(JavaRefactoring.class), javaParser, store);
+
+            assertThat(hollow.getClasses()).isEmpty();
+            assertThat(hollow.getImports()).isEmpty();
+            assertThat(javaSource.print()).isEqualTo(cu.printAll());
+            assertThat(store.size()).isEqualTo(1);
+        }
+    }
+}
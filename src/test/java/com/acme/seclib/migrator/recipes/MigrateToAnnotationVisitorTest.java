@@ -16,13 +16,18 @@
 package com.acme.seclib.migrator.recipes;
 
 import com.acme.seclib.migrator.recipes.MigrateToAnnotationVisitor;
+import com.acme.seclib.migrator.report.MigrationReport;
+import com.acme.seclib.migrator.report.MigrationReportWriter;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
 import org.springframework.sbm.engine.recipe.OpenRewriteRecipeAdapterAction;
 import org.springframework.sbm.project.resource.TestProjectContext;
 import org.springframework.sbm.support.openrewrite.GenericOpenRewriteRecipe;
 import org.springframework.sbm.test.ActionTest;
 
+import java.io.StringWriter;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -89,4 +94,86 @@ public class MigrateToAnnotationVisitorTest {
 
     }
 
+    @Test
+    @DisplayName("Record rewritten methods and changed imports in the migration report")
+    void recordMigrationInReport() {
+        MigrationReport migrationReport = new MigrationReport();
+        StringWriter report = new StringWriter();
+        migrationReport.writeTo(new MigrationReportWriter(report));
+
+        ActionTest.withProjectContext(TestProjectContext.buildProjectContext()
+                        .withJavaSources("""
+                                package com.acme.business;
+                                                        
+                                import com.acme.seclib.SecurityCheck;
+                                import java.util.UUID;
+                                                        
+                                public class BusinessService {
+                                                        
+                                    public String getPersonalData(UUID userId) {
+                                        String userData = userId.toString();
+                                        SecurityCheck.verifyResult(userData);
+                                        return userData;
+                                    }
+                                                        
+                                    public String getPublicData() {
+                                        return "public";
+                                    }
+                                }
+                                """)
+                        .withBuildFileHavingDependencies("com.acme.seclib:seclib-core:6.0.0")
+                )
+                .actionUnderTest(MigrateToAnnotationAction.builder()
+                        .migrationReport(migrationReport)
+                        .executionContext(new InMemoryExecutionContext())
+                        .build())
+                .verify(pc -> {
+                    assertThat(report.toString().lines()).hasSize(1);
+                    assertThat(report.toString())
+                            .startsWith("{\"path\":\"src/main/java/com/acme/business/BusinessService.java\"")
+                            .contains("\"methodsRewritten\":[\"getPersonalData\"]")
+                            .contains("\"importsAdded\":[\"com.acme.seclib.Secured\"]")
+                            .contains("\"importsRemoved\":[\"com.acme.seclib.SecurityCheck\"]")
+                            .doesNotContain("skippedBy");
+                });
+    }
+
+    @Test
+    @DisplayName("Methods that already are @Secured are not reported as rewritten")
+    void alreadySecuredMethodsAreNotReported() {
+        MigrationReport migrationReport = new MigrationReport();
+        StringWriter report = new StringWriter();
+        migrationReport.writeTo(new MigrationReportWriter(report));
+
+        ActionTest.withProjectContext(TestProjectContext.buildProjectContext()
+                        .withJavaSources("""
+                                package com.acme.business;
+                                                        
+                                import com.acme.seclib.Secured;
+                                import com.acme.seclib.SecurityCheck;
+                                import java.util.UUID;
+                                                        
+                                public class BusinessService {
+                                                        
+                                    @Secured
+                                    public String getPersonalData(UUID userId) {
+                                        String userData = userId.toString();
+                                        SecurityCheck.verifyResult(userData);
+                                        return userData;
+                                    }
+                                }
+                                """)
+                        .withBuildFileHavingDependencies("com.acme.seclib:seclib-core:6.0.0")
+                )
+                .actionUnderTest(MigrateToAnnotationAction.builder()
+                        .migrationReport(migrationReport)
+                        .executionContext(new InMemoryExecutionContext())
+                        .build())
+                .verify(pc -> {
+                    assertThat(report.toString().lines()).hasSize(1);
+                    assertThat(report.toString())
+                            .contains("\"methodsRewritten\":[]")
+                            .contains("\"importsAdded\":[]");
+                });
+    }
 }
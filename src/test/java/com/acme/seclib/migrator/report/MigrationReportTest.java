@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MigrationReportTest {
+
+    @Test
+    @DisplayName("Writes one JSON line per source with costs and changes")
+    void writesOneJsonLinePerSource() {
+        MigrationReport migrationReport = new MigrationReport();
+        StringWriter out = new StringWriter();
+        migrationReport.writeTo(new MigrationReportWriter(out));
+        Path migrated = Path.of("src/main/java/com/acme/business/BusinessService.java");
+        Path untouched = Path.of("src/main/java/com/acme/business/PersonalDataService.java");
+        Path notVisited = Path.of("src/main/java/com/acme/business/Application.java");
+
+        migrationReport.recordParse(migrated, 2_500_000, 420);
+        migrationReport.recordParse(untouched, 1_000_000, 120);
+        migrationReport.recordParse(notVisited, 500_000, 80);
+        migrationReport.recordVisit(migrated, 1_000_000, true, List.of("getPersonalData"), List.of("com.acme.seclib.Secured"), List.of("com.acme.seclib.SecurityCheck"));
+        migrationReport.recordVisit(untouched, 500_000, false, List.of(), List.of(), List.of());
+        migrationReport.finish();
+
+        assertThat(out.toString()).isEqualTo(
+                """
+                {"path":"src/main/java/com/acme/business/BusinessService.java","parseTimeMs":2.5,"visitTimeMs":1.0,"bytes":420,"methodsRewritten":["getPersonalData"],"importsAdded":["com.acme.seclib.Secured"],"importsRemoved":["com.acme.seclib.SecurityCheck"]}
+                {"path":"src/main/java/com/acme/business/PersonalDataService.java","parseTimeMs":1.0,"visitTimeMs":0.5,"bytes":120,"methodsRewritten":[],"importsAdded":[],"importsRemoved":[],"skippedBy":"condition"}
+                {"path":"src/main/java/com/acme/business/Application.java","parseTimeMs":0.5,"visitTimeMs":0.0,"bytes":80,"methodsRewritten":[],"importsAdded":[],"importsRemoved":[],"skippedBy":"condition"}
+                """);
+    }
+
+    @Test
+    @DisplayName("Visits are written when they are recorded, not at the end of the run")
+    void writesVisitsWhileRunning() {
+        MigrationReport migrationReport = new MigrationReport();
+        StringWriter out = new StringWriter();
+        migrationReport.writeTo(new MigrationReportWriter(out));
+        Path sourcePath = Path.of("BusinessService.java");
+
+        migrationReport.recordParse(sourcePath, 1_000_000, 10);
+        assertThat(out.toString()).isEmpty();
+
+        migrationReport.recordVisit(sourcePath, 1_000_000, true, List.of("getPersonalData"), List.of("com.acme.seclib.Secured"), List.of());
+        assertThat(out.toString()).isEqualTo(
+                """
+                {"path":"BusinessService.java","parseTimeMs":1.0,"visitTimeMs":1.0,"bytes":10,"methodsRewritten":["getPersonalData"],"importsAdded":["com.acme.seclib.Secured"],"importsRemoved":[]}
+                """);
+
+        // visited sources are not written again
+        migrationReport.finish();
+        assertThat(out.toString().lines()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Sources the scan did not parse have no parse time and size")
+    void omitsUnknownParse() {
+        MigrationReport migrationReport = new MigrationReport();
+        StringWriter out = new StringWriter();
+        migrationReport.writeTo(new MigrationReportWriter(out));
+
+        migrationReport.recordVisit(Path.of("BusinessService.java"), 1_000_000, false, List.of(), List.of(), List.of());
+
+        assertThat(out.toString()).isEqualTo(
+                """
+                {"path":"BusinessService.java","visitTimeMs":1.0,"methodsRewritten":[],"importsAdded":[],"importsRemoved":[],"skippedBy":"condition"}
+                """);
+    }
+}
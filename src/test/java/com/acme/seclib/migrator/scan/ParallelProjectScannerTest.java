@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.scan;
+
+import com.acme.seclib.migrator.MigratorApp;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.sbm.engine.commands.ScanCommand;
+import org.springframework.sbm.engine.context.ProjectContext;
+import org.springframework.sbm.project.resource.RewriteSourceFileHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.acme.seclib.migrator.scan.ParseUnitParserTest.generateProject;
+import static com.acme.seclib.migrator.scan.ParseUnitPartitionerTest.MULTI_MODULE_PROJECT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = MigratorApp.class, properties = "sbm.gitSupportEnabled=true")
+@ActiveProfiles("test")
+public class ParallelProjectScannerTest {
+
+    private static final Path GREETING_SERVICE = Path.of("module-b/src/main/java/com/acme/b/GreetingService.java");
+
+    @Autowired
+    ScanCommand scanCommand;
+
+    @Autowired
+    ParallelProjectScanner projectScanner;
+
+    @Test
+    @DisplayName("Parallel scan builds the same ProjectContext as the sequential scan")
+    void parallelScanEqualsSequentialScan() {
+        Map<Path, SourceFile> sequential = sourceFiles(scanCommand.execute(MULTI_MODULE_PROJECT.toString()));
+        Map<Path, SourceFile> parallel = sourceFiles(projectScanner.scan(MULTI_MODULE_PROJECT, 4));
+
+        assertThat(parallel.keySet()).containsExactlyInAnyOrderElementsOf(sequential.keySet());
+        sequential.forEach((sourcePath, sourceFile) -> {
+            assertThat(parallel.get(sourcePath).printAll()).as(sourcePath.toString()).isEqualTo(sourceFile.printAll());
+            assertThat(typesInUse(parallel.get(sourcePath))).as(sourcePath.toString()).isEqualTo(typesInUse(sourceFile));
+            assertThat(markerTypes(parallel.get(sourcePath))).as(sourcePath.toString()).isEqualTo(markerTypes(sourceFile));
+        });
+    }
+
+    @Test
+    @DisplayName("Types of reactor dependencies are attributed like in the sequential scan")
+    void attributesReactorDependencies() {
+        SourceFile sequential = sourceFiles(scanCommand.execute(MULTI_MODULE_PROJECT.toString())).get(GREETING_SERVICE);
+        SourceFile parallel = sourceFiles(projectScanner.scan(MULTI_MODULE_PROJECT, 4)).get(GREETING_SERVICE);
+
+        assertThat(typesInUse(sequential)).contains("com.acme.a.Greeting");
+        assertThat(typesInUse(parallel)).contains("com.acme.a.Greeting");
+    }
+
+    @Test
+    @DisplayName("Java files outside src/main/java and src/test/java are left to the MavenProjectParser")
+    void leavesOtherJavaFilesToMavenProjectParser() {
+        Map<Path, SourceFile> sequential = sourceFiles(scanCommand.execute(MULTI_MODULE_PROJECT.toString()));
+        Map<Path, SourceFile> parallel = sourceFiles(projectScanner.scan(MULTI_MODULE_PROJECT, 4));
+
+        for (Path outsideSourceRoots : List.of(Path.of("module-c/src/main/resources/templates/Template.java"),
+                Path.of("module-c/src/it/java/com/acme/c/NamesIT.java"))) {
+            assertThat(parallel.containsKey(outsideSourceRoots)).as(outsideSourceRoots.toString()).isEqualTo(sequential.containsKey(outsideSourceRoots));
+            if (parallel.containsKey(outsideSourceRoots)) {
+                assertThat(parallel.get(outsideSourceRoots)).isNotInstanceOf(J.CompilationUnit.class);
+                assertThat(parallel.get(outsideSourceRoots).getClass()).isEqualTo(sequential.get(outsideSourceRoots).getClass());
+            }
+        }
+    }
+
+    @Nested
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    class Benchmark {
+
+        private static final Logger LOGGER = LoggerFactory.getLogger(Benchmark.class);
+        private static final int MODULES = 16;
+        private static final int CLASSES_PER_MODULE = 40;
+
+        @Test
+        @DisplayName("full scan time by parallelism, POM parsing included")
+        void scanTimeByParallelism(@TempDir Path projectRoot) throws IOException {
+            generateProject(projectRoot, MODULES, CLASSES_PER_MODULE);
+            int cores = Runtime.getRuntime().availableProcessors();
+            List<Integer> parallelisms = IntStream.iterate(1, p -> p <= Math.max(cores, 4), p -> p * 2).boxed().toList();
+
+            // warm up class loading and the JIT
+            scanCommand.execute(projectRoot.toString());
+            projectScanner.scan(projectRoot, cores);
+
+            long sequential = medianMillis(() -> scanCommand.execute(projectRoot.toString()), 5);
+            LOGGER.info("cores={}, modules={}, classes={}, ScanCommand: {} ms", cores, MODULES, MODULES * CLASSES_PER_MODULE, sequential);
+            for (int parallelism : parallelisms) {
+                long median = medianMillis(() -> projectScanner.scan(projectRoot, parallelism), 5);
+                LOGGER.info("cores={}, modules={}, classes={}, parallelism={}: {} ms (speedup over ScanCommand {})", cores, MODULES,
+                        MODULES * CLASSES_PER_MODULE, parallelism, median, String.format("%.2fx", (double) sequential / median));
+            }
+        }
+
+        private long medianMillis(Supplier<ProjectContext> scan, int runs) {
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                scan.get();
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(millis);
+            return millis[runs / 2];
+        }
+    }
+
+    private static Map<Path, SourceFile> sourceFiles(ProjectContext projectContext) {
+        return projectContext.getProjectResources().stream()
+                .collect(Collectors.toMap(RewriteSourceFileHolder::getSourcePath, RewriteSourceFileHolder::getSourceFile,
+                        (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static List<String> typesInUse(SourceFile sourceFile) {
+        if (!(sourceFile instanceof J.CompilationUnit cu)) {
+            return List.of();
+        }
+        return cu.getTypesInUse().getTypesInUse().stream()
+                .filter(JavaType.FullyQualified.class::isInstance)
+                .map(type -> ((JavaType.FullyQualified) type).getFullyQualifiedName())
+                .sorted()
+                .toList();
+    }
+
+    private static List<String> markerTypes(SourceFile sourceFile) {
+        return sourceFile.getMarkers().getMarkers().stream()
+                .map(marker -> marker.getClass().getName())
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.scan;
+
+import com.acme.seclib.migrator.scan.ParseUnitParser.ParsedUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.marker.JavaSourceSet;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.acme.seclib.migrator.scan.ParseUnitPartitionerTest.MULTI_MODULE_PROJECT;
+import static com.acme.seclib.migrator.scan.ParseUnitPartitionerTest.partition;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParseUnitParserTest {
+
+    @Test
+    @DisplayName("Concurrent parse equals the parse on one thread")
+    void concurrentParseEqualsSingleThreadedParse() {
+        List<ParseUnit> units = partition(MULTI_MODULE_PROJECT);
+        assertThat(ParseUnitParser.lanes(units, 4)).hasSize(2);
+
+        Map<Path, J.CompilationUnit> sequential = parse(units, 1);
+        Map<Path, J.CompilationUnit> concurrent = parse(units, 4);
+
+        assertThat(concurrent.keySet()).containsExactlyInAnyOrderElementsOf(sequential.keySet()).hasSize(4);
+        sequential.forEach((sourcePath, cu) -> {
+            assertThat(concurrent.get(sourcePath).printAll()).isEqualTo(cu.printAll());
+            assertThat(typesInUse(concurrent.get(sourcePath))).isEqualTo(typesInUse(cu));
+            assertThat(sourceSet(concurrent.get(sourcePath))).isEqualTo(sourceSet(cu));
+        });
+
+        // module-a is parsed from source in the unit of module-b
+        Path greetingService = Path.of("module-b/src/main/java/com/acme/b/GreetingService.java");
+        assertThat(typesInUse(sequential.get(greetingService))).contains("com.acme.a.Greeting");
+        assertThat(typesInUse(concurrent.get(greetingService))).contains("com.acme.a.Greeting");
+        // the test source set sees the main sources
+        Path greetingCheck = Path.of("module-a/src/test/java/com/acme/a/GreetingCheck.java");
+        assertThat(sourceSet(concurrent.get(greetingCheck))).isEqualTo("test");
+        assertThat(typesInUse(concurrent.get(greetingCheck))).contains("com.acme.a.Greeting");
+    }
+
+    @Test
+    @DisplayName("Lanes are split until every thread has work")
+    void splitsLanesUpToParallelism() {
+        List<ParseUnit> units = IntStream.range(0, 5)
+                .mapToObj(i -> new ParseUnit(List.of(), List.of(), List.of()))
+                .toList();
+
+        assertThat(ParseUnitParser.lanes(units, 1)).extracting(List::size).containsExactly(5);
+        assertThat(ParseUnitParser.lanes(units, 2)).extracting(List::size).containsExactlyInAnyOrder(2, 3);
+        assertThat(ParseUnitParser.lanes(units, 8)).extracting(List::size).containsOnly(1).hasSize(5);
+        assertThat(ParseUnitParser.lanes(List.of(), 8)).isEmpty();
+    }
+
+    private static Map<Path, J.CompilationUnit> parse(List<ParseUnit> units, int parallelism) {
+        return parseUnits(MULTI_MODULE_PROJECT, units, parallelism).stream()
+                .flatMap(parsedUnit -> parsedUnit.compilationUnits().stream())
+                .collect(Collectors.toMap(J.CompilationUnit::getSourcePath, Function.identity()));
+    }
+
+    private static List<ParsedUnit> parseUnits(Path projectRoot, List<ParseUnit> units, int parallelism) {
+        return new ParseUnitParser(projectRoot, new InMemoryExecutionContext()).parse(units, parallelism, UnaryOperator.identity());
+    }
+
+    private static List<String> typesInUse(J.CompilationUnit cu) {
+        return cu.getTypesInUse().getTypesInUse().stream()
+                .filter(JavaType.FullyQualified.class::isInstance)
+                .map(type -> ((JavaType.FullyQualified) type).getFullyQualifiedName())
+                .sorted()
+                .toList();
+    }
+
+    private static String sourceSet(J.CompilationUnit cu) {
+        return cu.getMarkers().findFirst(JavaSourceSet.class).map(JavaSourceSet::getName).orElse(null);
+    }
+
+    @Nested
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    class Benchmark {
+
+        private static final Logger LOGGER = LoggerFactory.getLogger(Benchmark.class);
+        private static final int MODULES = 16;
+        private static final int CLASSES_PER_MODULE = 40;
+
+        @Test
+        @DisplayName("parse time by parallelism")
+        void parseTimeByParallelism(@TempDir Path projectRoot) throws IOException {
+            generateProject(projectRoot, MODULES, CLASSES_PER_MODULE);
+            List<ParseUnit> units = partition(projectRoot);
+            int cores = Runtime.getRuntime().availableProcessors();
+            List<Integer> parallelisms = IntStream.iterate(1, p -> p <= Math.max(cores, 4), p -> p * 2).boxed().toList();
+
+            // warm up class loading and the JIT
+            parseUnits(projectRoot, units, cores);
+            parseUnits(projectRoot, units, 1);
+
+            long baseline = 0;
+            for (int parallelism : parallelisms) {
+                long median = medianMillis(projectRoot, units, parallelism, 5);
+                baseline = baseline == 0 ? median : baseline;
+                LOGGER.info("cores={}, modules={}, classes={}, parallelism={}: {} ms (speedup {})", cores, MODULES,
+                        MODULES * CLASSES_PER_MODULE, parallelism, median, String.format("%.2fx", (double) baseline / median));
+            }
+        }
+
+        private long medianMillis(Path projectRoot, List<ParseUnit> units, int parallelism, int runs) {
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                parseUnits(projectRoot, units, parallelism);
+                millis[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(millis);
+            return millis[runs / 2];
+        }
+    }
+
+    // independent modules, every class uses its predecessor in the same module
+    static void generateProject(Path projectRoot, int modules, int classesPerModule) throws IOException {
+        String moduleList = IntStream.range(0, modules).mapToObj(m -> "<module>module-" + m + "</module>").collect(Collectors.joining());
+        Files.writeString(projectRoot.resolve("pom.xml"), """
+                <project xmlns="http://maven.apache.org/POM/4.0.0">
+                    <modelVersion>4.0.0</modelVersion>
+                    <groupId>com.acme</groupId>
+                    <artifactId>benchmark</artifactId>
+                    <version>1.0.0</version>
+                    <packaging>pom</packaging>
+                    <modules>%s</modules>
+                </project>
+                """.formatted(moduleList));
+        for (int m = 0; m < modules; m++) {
+            Path module = projectRoot.resolve("module-" + m);
+            Path sources = Files.createDirectories(module.resolve("src/main/java/com/acme/m" + m));
+            Files.writeString(module.resolve("pom.xml"), """
+                    <project xmlns="http://maven.apache.org/POM/4.0.0">
+                        <modelVersion>4.0.0</modelVersion>
+                        <parent>
+                            <groupId>com.acme</groupId>
+                            <artifactId>benchmark</artifactId>
+                            <version>1.0.0</version>
+                        </parent>
+                        <artifactId>module-%d</artifactId>
+                    </project>
+                    """.formatted(m));
+            for (int c = 0; c < classesPerModule; c++) {
+                String previous = c == 0 ? "Object" : "Type" + (c - 1);
+                Files.writeString(sources.resolve("Type" + c + ".java"), """
+                        package com.acme.m%d;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+                        import java.util.Map;
+                        import java.util.stream.Collectors;
+
+                        public class Type%d {
+
+                            private final List<%s> values = new ArrayList<>();
+
+                            public Map<String, Long> countByName() {
+                                return values.stream().collect(Collectors.groupingBy(Object::toString, Collectors.counting()));
+                            }
+
+                            public List<%s> values() {
+                                return values;
+                            }
+                        }
+                        """.formatted(m, c, previous, previous));
+            }
+        }
+    }
+}
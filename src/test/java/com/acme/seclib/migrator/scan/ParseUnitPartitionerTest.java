@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 - 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.acme.seclib.migrator.scan;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.maven.MavenParser;
+import org.openrewrite.xml.tree.Xml;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParseUnitPartitionerTest {
+
+    static final Path MULTI_MODULE_PROJECT = Path.of("src/test/resources/multi-module-project").toAbsolutePath();
+
+    @Test
+    @DisplayName("Modules that depend on each other in the reactor are parsed in one unit")
+    void groupsReactorDependencies() {
+        List<ParseUnit> units = partition(MULTI_MODULE_PROJECT);
+
+        // module-b depends on module-a, the aggregator has no sources of its own
+        assertThat(units).hasSize(2);
+        assertThat(units.get(0).modules()).extracting(ModuleSources::directory).containsExactly(
+                MULTI_MODULE_PROJECT.resolve("module-a"),
+                MULTI_MODULE_PROJECT.resolve("module-b"));
+        assertThat(units.get(0).mainSources()).extracting(path -> path.getFileName().toString())
+                .containsExactly("Greeting.java", "GreetingService.java");
+        assertThat(units.get(0).testSources()).extracting(path -> path.getFileName().toString())
+                .containsExactly("GreetingCheck.java");
+        assertThat(units.get(1).modules()).extracting(ModuleSources::directory).containsExactly(MULTI_MODULE_PROJECT.resolve("module-c"));
+        assertThat(units.get(1).mainSources()).extracting(path -> path.getFileName().toString()).containsExactly("Names.java");
+    }
+
+    @Test
+    @DisplayName("Only src/main/java and src/test/java are Java source roots")
+    void ignoresJavaFilesOutsideSourceRoots() {
+        List<ParseUnit> units = partition(MULTI_MODULE_PROJECT);
+
+        // module-c has Template.java in src/main/resources and NamesIT.java in src/it/java
+        assertThat(units.stream().flatMap(unit -> Stream.concat(unit.mainSources().stream(), unit.testSources().stream())))
+                .extracting(path -> path.getFileName().toString())
+                .containsExactlyInAnyOrder("Greeting.java", "GreetingService.java", "GreetingCheck.java", "Names.java");
+        assertThat(javaSources(MULTI_MODULE_PROJECT)).filteredOn(path -> ParseUnitPartitioner.isJavaSource(path, moduleDirs(MULTI_MODULE_PROJECT)))
+                .extracting(path -> path.getFileName().toString())
+                .containsExactlyInAnyOrder("Greeting.java", "GreetingService.java", "GreetingCheck.java", "Names.java");
+    }
+
+    @Test
+    @DisplayName("Reactor modules are not on the classpath")
+    void reactorModulesAreParsedFromSource() {
+        List<ParseUnit> units = partition(MULTI_MODULE_PROJECT);
+
+        assertThat(units).allSatisfy(unit -> {
+            assertThat(unit.mainClasspath()).isEmpty();
+            assertThat(unit.testClasspath()).isEmpty();
+        });
+    }
+
+    static List<ParseUnit> partition(Path projectRoot) {
+        InMemoryExecutionContext executionContext = new InMemoryExecutionContext();
+        return new ParseUnitPartitioner(executionContext).partition(projectRoot, parsePoms(projectRoot, executionContext), javaSources(projectRoot));
+    }
+
+    static List<Xml.Document> parsePoms(Path projectRoot, InMemoryExecutionContext executionContext) {
+        List<Path> poms = files(projectRoot).stream().filter(path -> path.getFileName().toString().equals("pom.xml")).toList();
+        return MavenParser.builder().build().parse(poms, projectRoot, executionContext);
+    }
+
+    static List<Path> javaSources(Path projectRoot) {
+        return files(projectRoot).stream().filter(path -> path.getFileName().toString().endsWith(".java")).toList();
+    }
+
+    private static List<Path> moduleDirs(Path projectRoot) {
+        return files(projectRoot).stream().filter(path -> path.getFileName().toString().equals("pom.xml")).map(Path::getParent).toList();
+    }
+
+    private static List<Path> files(Path projectRoot) {
+        try (Stream<Path> files = Files.walk(projectRoot)) {
+            return files.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.acme.a;
+
+public class Greeting {
+
+    public String greet(String name) {
+        return "Hello " + name;
+    }
+}
@@ -0,0 +1,8 @@
+package com.acme.a;
+
+public class GreetingCheck {
+
+    public boolean greetsBob() {
+        return new Greeting().greet("Bob").equals("Hello Bob");
+    }
+}
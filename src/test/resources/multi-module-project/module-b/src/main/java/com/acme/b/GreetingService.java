@@ -0,0 +1,16 @@
+package com.acme.b;
+
+import com.acme.a.Greeting;
+
+public class GreetingService {
+
+    private final Greeting greeting = new Greeting();
+
+    public String greetAll(String... names) {
+        StringBuilder sb = new StringBuilder();
+        for (String name : names) {
+            sb.append(greeting.greet(name));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,8 @@
+package com.acme.c;
+
+public class NamesIT {
+
+    void all() {
+        new Names().all();
+    }
+}